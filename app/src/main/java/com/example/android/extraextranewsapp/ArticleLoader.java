@@ -11,6 +11,12 @@ public class ArticleLoader extends AsyncTaskLoader<List<Article>> {
     // Tag for log messages
     private static final String LOG_TAG = ArticleLoader.class.getName();
 
+    // Name of the cache holding decoded article lists, keyed by request URL.
+    private static final String ARTICLES_CACHE = "articles";
+
+    // Maximum age of a cached list, so that headlines are fetched again every few minutes.
+    private static final long ARTICLES_MAX_AGE_MILLIS = 5 * 60 * 1000;
+
     private String uUrl;
 
     /**
@@ -37,8 +43,27 @@ public class ArticleLoader extends AsyncTaskLoader<List<Article>> {
             return null;
         }
 
-        // Perform the network request, parse the response, and extract a list of articles.
-        List<Article> articlesList = QueryUtils.fetchArticleData(uUrl);
+        // Return the cached list of articles for this URL if there is a recent one.
+        CacheManager cacheManager = CacheManager.getInstance(getContext());
+        @SuppressWarnings("unchecked")
+        List<Article> cachedList = (List<Article>) cacheManager.get(ARTICLES_CACHE, uUrl,
+                ARTICLES_MAX_AGE_MILLIS);
+        if (cachedList != null) {
+            return cachedList;
+        }
+
+        // Perform the network request, parse the response, and extract a page of articles.
+        ArticleFetcher.ArticlePage articlePage = QueryUtils.fetchArticlePage(uUrl);
+        if (articlePage == null) {
+            return null;
+        }
+
+        // Only cache complete pages, so that a partly malformed response is fetched again.
+        List<Article> articlesList = articlePage.getArticles();
+        if (articlePage.getSkippedResults() == 0) {
+            cacheManager.put(ARTICLES_CACHE, uUrl, articlesList,
+                    CacheManager.estimateSize(articlesList));
+        }
         return articlesList;
 
     }
@@ -0,0 +1,246 @@
+package com.example.android.extraextranewsapp;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.support.v4.app.ActivityManagerCompat;
+import android.support.v4.util.LruCache;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Holds every in-memory cache of the app under a single byte budget, so that decoded article
+// lists, bitmaps, formatted dates, and response bytes compete for the same share of the heap.
+// Entries from all caches live in one LRU, so eviction always drops the least recently used bytes
+// first no matter which cache they belong to. A single entry may take at most a quarter of the
+// budget, so that one large entry cannot push out many small ones that are in use.
+// The manager listens to onTrimMemory and onLowMemory of the whole process, so it also shrinks
+// while the app is in the background and no activity is left to forward these callbacks.
+
+public class CacheManager implements ComponentCallbacks2 {
+
+    // Tag for log messages.
+    private static final String LOG_TAG = CacheManager.class.getSimpleName();
+
+    // Fraction of the per-app heap (memory class) given to caches, and a smaller one for
+    // low-RAM devices where GC pressure hurts the most.
+    static final int BUDGET_DIVISOR = 8;
+    static final int LOW_RAM_BUDGET_DIVISOR = 16;
+
+    // Largest share of the budget that a single entry may take.
+    static final int MAX_ENTRY_DIVISOR = 4;
+
+    // Rough per-object overhead in bytes used when estimating entry sizes.
+    private static final int OBJECT_OVERHEAD = 16;
+
+    private static CacheManager sInstance;
+
+    private final LruCache<String, Entry> entries;
+
+    // A cached value together with the size it was charged against the budget and the time it
+    // was stored.
+    private static class Entry {
+        final Object value;
+        final int sizeBytes;
+        final long storedAtNanos;
+
+        Entry(Object value, int sizeBytes) {
+            this.value = value;
+            this.sizeBytes = sizeBytes;
+            this.storedAtNanos = System.nanoTime();
+        }
+    }
+
+    CacheManager(int maxBytes) {
+        entries = new LruCache<String, Entry>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Entry entry) {
+                return entry.sizeBytes;
+            }
+        };
+    }
+
+    /**
+     * Return the app-wide cache manager, creating it on first use.
+     *
+     * @param context used to look up the device memory class.
+     */
+
+    public static synchronized CacheManager getInstance(Context context) {
+        if (sInstance == null) {
+            Context applicationContext = context.getApplicationContext();
+            sInstance = new CacheManager(computeBudget(applicationContext));
+            applicationContext.registerComponentCallbacks(sInstance);
+        }
+        return sInstance;
+    }
+
+    // Derive the byte budget from the memory class of the device.
+    private static int computeBudget(Context context) {
+        ActivityManager activityManager = (ActivityManager)
+                context.getSystemService(Context.ACTIVITY_SERVICE);
+        int budget = computeBudget(activityManager.getMemoryClass(),
+                ActivityManagerCompat.isLowRamDevice(activityManager));
+        Log.i(LOG_TAG, "Cache budget: " + budget + " bytes");
+        return budget;
+    }
+
+    /**
+     * Return the byte budget for the given memory class.
+     *
+     * @param memoryClassMb is the per-app heap limit in megabytes.
+     * @param lowRamDevice  is true if the device is considered low-RAM.
+     */
+
+    static int computeBudget(int memoryClassMb, boolean lowRamDevice) {
+        int divisor = lowRamDevice ? LOW_RAM_BUDGET_DIVISOR : BUDGET_DIVISOR;
+        return memoryClassMb * 1024 * 1024 / divisor;
+    }
+
+    /**
+     * Store a value in the given cache. Values larger than a quarter of the budget are not
+     * cached.
+     *
+     * @param cacheName is the name of the cache, e.g. "articles". It must not contain ':'.
+     * @param key       is the key of the value within that cache.
+     * @param value     is the value to store.
+     * @param sizeBytes is the estimated size of the value, charged against the shared budget.
+     */
+
+    public void put(String cacheName, String key, Object value, int sizeBytes) {
+        String entryKey = entryKey(cacheName, key);
+        if (key == null || value == null) {
+            return;
+        }
+        if (sizeBytes > entries.maxSize() / MAX_ENTRY_DIVISOR) {
+            // Drop any older value, so that get() does not return it instead.
+            entries.remove(entryKey);
+            return;
+        }
+        entries.put(entryKey, new Entry(value, Math.max(sizeBytes, 1)));
+    }
+
+    // Return the cached value, or null if it is not cached (or was evicted).
+    public Object get(String cacheName, String key) {
+        return get(cacheName, key, Long.MAX_VALUE);
+    }
+
+    /**
+     * Return the cached value if it is not older than the given age.
+     *
+     * @param cacheName    is the name of the cache.
+     * @param key          is the key of the value within that cache.
+     * @param maxAgeMillis is the maximum age of the value; older values are dropped.
+     * @return the value, or null if it is not cached, was evicted, or is too old.
+     */
+
+    public Object get(String cacheName, String key, long maxAgeMillis) {
+        String entryKey = entryKey(cacheName, key);
+        if (key == null) {
+            return null;
+        }
+        Entry entry = entries.get(entryKey);
+        if (entry == null) {
+            return null;
+        }
+        long ageMillis = (System.nanoTime() - entry.storedAtNanos) / 1000000;
+        if (ageMillis > maxAgeMillis) {
+            entries.remove(entryKey);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public void remove(String cacheName, String key) {
+        String entryKey = entryKey(cacheName, key);
+        if (key != null) {
+            entries.remove(entryKey);
+        }
+    }
+
+    // Drop every entry that belongs to the given cache.
+    public void clear(String cacheName) {
+        String prefix = entryKey(cacheName, "");
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, Entry> entry : entries.snapshot().entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                keys.add(entry.getKey());
+            }
+        }
+        for (String key : keys) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Shrink the caches in response to ComponentCallbacks2#onTrimMemory.
+     *
+     * @param level is the trim level passed to onTrimMemory.
+     */
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            // The process is near the top of the kill list, so free everything.
+            entries.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            entries.trimToSize(entries.maxSize() / 4);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            entries.trimToSize(entries.maxSize() / 2);
+        }
+    }
+
+    // Free everything in response to onLowMemory.
+    @Override
+    public void onLowMemory() {
+        entries.evictAll();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    // Return the number of bytes currently charged against the budget.
+    int size() {
+        return entries.size();
+    }
+
+    int maxSize() {
+        return entries.maxSize();
+    }
+
+    // Estimate the number of bytes held by a list of articles.
+    public static int estimateSize(List<Article> articles) {
+        if (articles == null) {
+            return 0;
+        }
+        int size = OBJECT_OVERHEAD;
+        for (Article article : articles) {
+            size += OBJECT_OVERHEAD * 6
+                    + estimateSize(article.getSectionName())
+                    + estimateSize(article.getArticleTitle())
+                    + estimateSize(article.getArticleAuthor())
+                    + estimateSize(article.getWebPubDate())
+                    + estimateSize(article.getArticleUrl());
+        }
+        return size;
+    }
+
+    // Estimate the number of bytes held by a String (two bytes per char plus overhead).
+    public static int estimateSize(String value) {
+        return value == null ? 0 : OBJECT_OVERHEAD + 2 * value.length();
+    }
+
+    // Cache names are used as key prefixes, so they must not contain the separator.
+    private static String entryKey(String cacheName, String key) {
+        if (cacheName == null || cacheName.indexOf(':') >= 0) {
+            throw new IllegalArgumentException("Invalid cache name: " + cacheName);
+        }
+        return cacheName + ":" + key;
+    }
+}
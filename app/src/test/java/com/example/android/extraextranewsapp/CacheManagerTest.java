@@ -0,0 +1,139 @@
+package com.example.android.extraextranewsapp;
+
+import android.content.ComponentCallbacks2;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the shared cache budget.
+ */
+public class CacheManagerTest {
+
+    private static final int BUDGET = 1000;
+
+    private CacheManager cacheManager;
+
+    @Before
+    public void setUp() {
+        cacheManager = new CacheManager(BUDGET);
+    }
+
+    // Fill the whole budget with ten entries of 100 bytes, spread over two caches.
+    private void fill() {
+        for (int i = 0; i < 10; i++) {
+            cacheManager.put(i % 2 == 0 ? "articles" : "dates", "key" + i, "value" + i, 100);
+        }
+        assertEquals(BUDGET, cacheManager.size());
+    }
+
+    @Test
+    public void computeBudget_usesMemoryClass() {
+        assertEquals(64 * 1024 * 1024 / CacheManager.BUDGET_DIVISOR,
+                CacheManager.computeBudget(64, false));
+        assertEquals(64 * 1024 * 1024 / CacheManager.LOW_RAM_BUDGET_DIVISOR,
+                CacheManager.computeBudget(64, true));
+    }
+
+    @Test
+    public void put_storesValue() {
+        cacheManager.put("articles", "url", "list", 100);
+
+        assertEquals("list", cacheManager.get("articles", "url"));
+        assertNull(cacheManager.get("dates", "url"));
+        assertEquals(100, cacheManager.size());
+    }
+
+    @Test
+    public void put_rejectsOversizeValue() {
+        cacheManager.put("articles", "url", "small", 100);
+        cacheManager.put("articles", "url", "large", BUDGET / CacheManager.MAX_ENTRY_DIVISOR + 1);
+
+        // The oversize value is not stored and the older value is dropped.
+        assertNull(cacheManager.get("articles", "url"));
+        assertEquals(0, cacheManager.size());
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsedAcrossCaches() {
+        cacheManager.put("articles", "1", "a1", 250);
+        cacheManager.put("dates", "1", "d1", 250);
+        cacheManager.put("articles", "2", "a2", 250);
+        cacheManager.put("dates", "2", "d2", 250);
+        cacheManager.get("articles", "1");
+
+        cacheManager.put("bitmaps", "1", "b1", 250);
+
+        assertNull(cacheManager.get("dates", "1"));
+        assertEquals("a1", cacheManager.get("articles", "1"));
+        assertEquals("b1", cacheManager.get("bitmaps", "1"));
+    }
+
+    @Test
+    public void get_dropsValueOlderThanMaxAge() throws InterruptedException {
+        cacheManager.put("articles", "url", "list", 100);
+        Thread.sleep(5);
+
+        assertEquals("list", cacheManager.get("articles", "url", 60000));
+        assertNull(cacheManager.get("articles", "url", 0));
+        assertEquals(0, cacheManager.size());
+    }
+
+    @Test
+    public void clear_onlyDropsTheGivenCache() {
+        cacheManager.put("articles", "url", "list", 100);
+        cacheManager.put("articles2", "url", "other list", 100);
+        cacheManager.put("dates", "url", "date", 100);
+
+        cacheManager.clear("articles");
+
+        assertNull(cacheManager.get("articles", "url"));
+        assertEquals("other list", cacheManager.get("articles2", "url"));
+        assertEquals("date", cacheManager.get("dates", "url"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cacheName_mustNotContainSeparator() {
+        cacheManager.put("articles:url", "page", "list", 100);
+    }
+
+    @Test
+    public void onTrimMemory_shrinksByLevel() {
+        fill();
+        cacheManager.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+        assertEquals(BUDGET, cacheManager.size());
+
+        cacheManager.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        assertTrue(cacheManager.size() <= BUDGET / 2);
+
+        fill();
+        cacheManager.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        assertTrue(cacheManager.size() <= BUDGET / 2);
+
+        fill();
+        cacheManager.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+        assertTrue(cacheManager.size() <= BUDGET / 4);
+
+        fill();
+        cacheManager.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+        assertTrue(cacheManager.size() <= BUDGET / 4);
+
+        fill();
+        cacheManager.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_MODERATE);
+        assertEquals(0, cacheManager.size());
+
+        fill();
+        cacheManager.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        assertEquals(0, cacheManager.size());
+    }
+
+    @Test
+    public void onLowMemory_dropsEverything() {
+        fill();
+        cacheManager.onLowMemory();
+
+        assertEquals(0, cacheManager.size());
+    }
+}
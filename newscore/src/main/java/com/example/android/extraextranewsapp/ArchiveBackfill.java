@@ -0,0 +1,492 @@
+package com.example.android.extraextranewsapp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.URLEncoder;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Pre-populates a local article archive from The Guardian. The date range is split into windows
+// of a few days, each window into pages, and the pages are fetched concurrently. Every stored page
+// is checkpointed, so a backfill that is interrupted can be run again and resumes where it stopped.
+// Pages are stored before they are checkpointed, so after a crash a page may be stored twice.
+// Windows are fixed calendar slots counted from 1970-01-01, so a later run over a wider range
+// reuses the checkpointed windows and only fetches the new ones. Only windows that ended before
+// today are backfilled, because a window that is still open keeps growing after it is counted.
+
+public class ArchiveBackfill {
+
+    // Logger for log messages.
+    private static final Logger LOGGER = Logger.getLogger(ArchiveBackfill.class.getSimpleName());
+
+    // URL for article data from The Guardian API.
+    private static final String GUARDIAN_REQUEST_URL =
+            "https://content.guardianapis.com/search?";
+
+    // Date format of the from-date and to-date query parameters.
+    private static final String DATE_FORMAT = "yyyy-MM-dd";
+
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+    // Number of times a page is requested before it is left for the next run.
+    private static final int MAX_ATTEMPTS = 3;
+
+    // Delay before the first retry of a page; it grows with each further attempt.
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    // Defaults used by main(). A developer key of The Guardian API allows one request per
+    // second, so that is the default rate; a few requests in flight hide the response time.
+    private static final int DEFAULT_WINDOW_DAYS = 7;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int DEFAULT_CONCURRENCY = 4;
+    private static final double DEFAULT_REQUESTS_PER_SECOND = 1;
+
+    private final String apiKey;
+    private final String topic;
+    private final int windowDays;
+    private final int pageSize;
+    private final ExecutorService executor;
+    private final Semaphore requestPermits;
+    private final long requestIntervalNanos;
+    private final ReentrantLock rateLock = new ReentrantLock();
+    private long nextRequestNanos;
+    private final BackfillCheckpoint checkpoint;
+    private final ArticleSink sink;
+
+    // Delay before the first retry, shortened by tests.
+    long retryDelayMillis = RETRY_DELAY_MILLIS;
+
+    /**
+     * Create a new ArchiveBackfill.
+     *
+     * @param apiKey         is the key for The Guardian API.
+     * @param topic          is the search query, e.g. politics.
+     * @param windowDays     is the number of days in each date window.
+     * @param pageSize       is the number of articles requested per page (at most 200).
+     * @param maxConcurrency    is the maximum number of requests in flight at once.
+     * @param requestsPerSecond is the maximum rate at which requests are started.
+     * @param executor          runs the fetch tasks. Tasks block on network I/O, so an executor
+     *                          with a virtual thread per task works well; the number of
+     *                          requests is bounded by maxConcurrency either way.
+     * @param checkpoint        records the stored pages. It must have been opened for the same
+     *                          topic, page size and window days.
+     * @param sink              is the local store that receives the articles.
+     */
+
+    public ArchiveBackfill(String apiKey, String topic, int windowDays, int pageSize,
+                           int maxConcurrency, double requestsPerSecond,
+                           ExecutorService executor, BackfillCheckpoint checkpoint,
+                           ArticleSink sink) {
+        if (windowDays < 1 || pageSize < 1 || maxConcurrency < 1 || !(requestsPerSecond > 0)) {
+            throw new IllegalArgumentException("windowDays, pageSize, maxConcurrency and "
+                    + "requestsPerSecond must be positive");
+        }
+        if (!topic.equals(checkpoint.getTopic()) || pageSize != checkpoint.getPageSize()
+                || windowDays != checkpoint.getWindowDays()) {
+            throw new IllegalArgumentException("The checkpoint was opened for topic "
+                    + checkpoint.getTopic() + ", page size " + checkpoint.getPageSize()
+                    + " and window days " + checkpoint.getWindowDays());
+        }
+        this.apiKey = apiKey;
+        this.topic = topic;
+        this.windowDays = windowDays;
+        this.pageSize = pageSize;
+        this.executor = executor;
+        this.requestPermits = new Semaphore(maxConcurrency);
+        this.requestIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.nextRequestNanos = System.nanoTime();
+        this.checkpoint = checkpoint;
+        this.sink = sink;
+    }
+
+    // Counters of a backfill run, used to measure its throughput.
+    public static class Stats {
+        private final AtomicInteger windows = new AtomicInteger();
+        private final AtomicInteger windowsFailed = new AtomicInteger();
+        private final AtomicInteger pagesFetched = new AtomicInteger();
+        private final AtomicInteger pagesSkipped = new AtomicInteger();
+        private final AtomicInteger pagesFailed = new AtomicInteger();
+        private final AtomicInteger resultsSkipped = new AtomicInteger();
+        private final AtomicLong articlesStored = new AtomicLong();
+        private volatile long elapsedMillis;
+
+        public int getWindows() {
+            return windows.get();
+        }
+
+        // Number of windows that could not be started, e.g. because the executor rejected them.
+        public int getWindowsFailed() {
+            return windowsFailed.get();
+        }
+
+        public int getPagesFetched() {
+            return pagesFetched.get();
+        }
+
+        public int getPagesSkipped() {
+            return pagesSkipped.get();
+        }
+
+        public int getPagesFailed() {
+            return pagesFailed.get();
+        }
+
+        // Number of malformed results that were left out of otherwise valid pages.
+        public int getResultsSkipped() {
+            return resultsSkipped.get();
+        }
+
+        public long getArticlesStored() {
+            return articlesStored.get();
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public double getArticlesPerSecond() {
+            return elapsedMillis == 0 ? 0 : articlesStored.get() * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "windows=" + getWindows()
+                    + " windowsFailed=" + getWindowsFailed()
+                    + " pagesFetched=" + getPagesFetched()
+                    + " pagesSkipped=" + getPagesSkipped()
+                    + " pagesFailed=" + getPagesFailed()
+                    + " resultsSkipped=" + getResultsSkipped()
+                    + " articlesStored=" + getArticlesStored()
+                    + " elapsedMillis=" + getElapsedMillis()
+                    + " articlesPerSecond=" + String.format("%.1f", getArticlesPerSecond());
+        }
+    }
+
+    /**
+     * Fetch and store every article published in the windows that cover the two dates, skipping
+     * the pages that are already checkpointed. Pages that still fail after retrying are counted
+     * in the stats and are fetched again by the next run.
+     *
+     * @param fromDate is the first day of the range, as yyyy-MM-dd.
+     * @param toDate   is the last day of the range (inclusive), as yyyy-MM-dd. The window that
+     *                 contains it must have ended before today.
+     */
+
+    public Stats run(String fromDate, String toDate) throws ParseException, InterruptedException {
+        final Run run = new Run();
+        long start = System.nanoTime();
+
+        // Hold one pending task for the submission loop itself, so that the run cannot be seen
+        // as finished before all windows have been submitted.
+        run.pending.incrementAndGet();
+        for (final String[] window : splitIntoWindows(fromDate, toDate, windowDays, new Date())) {
+            run.stats.windows.incrementAndGet();
+            run.submit(new Runnable() {
+                @Override
+                public void run() {
+                    backfillWindow(run, window[0], window[1]);
+                }
+            }, run.stats.windowsFailed);
+        }
+        run.finishTask();
+        run.done.await();
+
+        run.stats.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        LOGGER.info("Backfill finished: " + run.stats);
+        return run.stats;
+    }
+
+    // State shared by the tasks of one run.
+    private class Run {
+        final Stats stats = new Stats();
+        final AtomicInteger pending = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        // Submit a task to the executor, keeping track of the tasks that have not finished yet.
+        // A task that the executor rejects is counted in failedCounter, so that the run still
+        // finishes and the next run fetches it again.
+        void submit(final Runnable task, AtomicInteger failedCounter) {
+            pending.incrementAndGet();
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            task.run();
+                        } catch (RuntimeException e) {
+                            LOGGER.log(Level.SEVERE, "Backfill task failed", e);
+                        } finally {
+                            finishTask();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                LOGGER.log(Level.SEVERE, "Backfill task rejected by the executor", e);
+                failedCounter.incrementAndGet();
+                finishTask();
+            }
+        }
+
+        void finishTask() {
+            if (pending.decrementAndGet() == 0) {
+                done.countDown();
+            }
+        }
+    }
+
+    // Fetch the first page of a window to learn its page count (unless the checkpoint already
+    // knows it), then submit the remaining pages as separate tasks.
+    private void backfillWindow(final Run run, final String from, final String to) {
+        final String window = from + "_" + to;
+        Integer pages = checkpoint.getPageCount(window);
+        if (pages == null) {
+            pages = backfillPage(run, from, to, 1);
+            if (pages == null) {
+                return;
+            }
+        } else {
+            run.stats.pagesSkipped.incrementAndGet();
+        }
+
+        for (int page = 2; page <= pages; page++) {
+            if (checkpoint.isDone(window, page)) {
+                run.stats.pagesSkipped.incrementAndGet();
+                continue;
+            }
+            final int currentPage = page;
+            run.submit(new Runnable() {
+                @Override
+                public void run() {
+                    backfillPage(run, from, to, currentPage);
+                }
+            }, run.stats.pagesFailed);
+        }
+    }
+
+    // Fetch, store and checkpoint one page. Return the page count of the window, or null if the
+    // page could not be fetched, parsed or stored. Such a page is not checkpointed, so the next
+    // run fetches it again.
+    private Integer backfillPage(Run run, String from, String to, int page) {
+        String window = from + "_" + to;
+        try {
+            ArticleFetcher.ArticlePage articlePage = fetchWithRetry(buildUrl(from, to, page));
+            if (articlePage == null) {
+                run.stats.pagesFailed.incrementAndGet();
+                return null;
+            }
+            run.stats.pagesFetched.incrementAndGet();
+            run.stats.resultsSkipped.addAndGet(articlePage.getSkippedResults());
+
+            // A window without results reports zero pages; record it as one (empty) page.
+            int pages = Math.max(articlePage.getPages(), 1);
+            List<Article> articles = articlePage.getArticles();
+            if (!articles.isEmpty()) {
+                sink.accept(articles);
+                run.stats.articlesStored.addAndGet(articles.size());
+            }
+            checkpoint.markDone(window, page, pages);
+            return pages;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Problem storing page " + page + " of " + window, e);
+            run.stats.pagesFailed.incrementAndGet();
+            return null;
+        }
+    }
+
+    // Request a page, retrying with a growing delay. The permit is only held while the request
+    // waits for its turn and is in flight, so tasks waiting to retry do not count against the
+    // concurrency limit.
+    private ArticleFetcher.ArticlePage fetchWithRetry(String requestUrl) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            ArticleFetcher.ArticlePage articlePage;
+            try {
+                requestPermits.acquire();
+                try {
+                    awaitRequestSlot();
+                    articlePage = fetchPage(requestUrl);
+                } finally {
+                    requestPermits.release();
+                }
+                if (articlePage != null) {
+                    return articlePage;
+                }
+                if (attempt < MAX_ATTEMPTS) {
+                    Thread.sleep(retryDelayMillis * attempt);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // Wait until the next request may start, keeping requests at most requestsPerSecond apart.
+    // A lock rather than synchronized, so that virtual threads do not pin their carrier thread.
+    private void awaitRequestSlot() throws InterruptedException {
+        long waitNanos;
+        rateLock.lock();
+        try {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextRequestNanos);
+            nextRequestNanos = slot + requestIntervalNanos;
+            waitNanos = slot - now;
+        } finally {
+            rateLock.unlock();
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    // Request and parse one page, returning null if that failed. Tests override this to avoid
+    // the network.
+    ArticleFetcher.ArticlePage fetchPage(String requestUrl) {
+        return ArticleFetcher.fetchArticlePage(requestUrl);
+    }
+
+    // Build the request URL for one page of a date window.
+    private String buildUrl(String from, String to, int page) {
+        return GUARDIAN_REQUEST_URL
+                + "api-key=" + encode(apiKey)
+                + "&q=" + encode(topic)
+                + "&from-date=" + from
+                + "&to-date=" + to
+                + "&use-date=published"
+                + "&order-by=oldest"
+                + "&page-size=" + pageSize
+                + "&page=" + page
+                + "&show-fields=byline"
+                + "&show-tags=contributor";
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Split a date range into the windows that cover it. Windows are slots of windowDays days
+     * counted from 1970-01-01, so they do not depend on fromDate, and the first and last window
+     * may reach beyond the range.
+     *
+     * @param fromDate   is the first day of the range, as yyyy-MM-dd.
+     * @param toDate     is the last day of the range (inclusive), as yyyy-MM-dd.
+     * @param windowDays is the number of days in each window.
+     * @param today      is the current time; the last window must have ended before its day.
+     * @return the windows as {first day, last day} pairs, in order.
+     * @throws IllegalArgumentException if fromDate is after toDate, or if the last window has
+     *                                  not ended yet.
+     */
+
+    static List<String[]> splitIntoWindows(String fromDate, String toDate, int windowDays,
+                                           Date today) throws ParseException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        dateFormat.setLenient(false);
+        long firstDay = dateFormat.parse(fromDate).getTime() / MILLIS_PER_DAY;
+        long lastDay = dateFormat.parse(toDate).getTime() / MILLIS_PER_DAY;
+        if (firstDay > lastDay) {
+            throw new IllegalArgumentException(fromDate + " is after " + toDate);
+        }
+
+        long firstSlot = floorDiv(firstDay, windowDays);
+        long lastSlot = floorDiv(lastDay, windowDays);
+        long lastWindowEnd = (lastSlot + 1) * windowDays - 1;
+        if (lastWindowEnd >= floorDiv(today.getTime(), MILLIS_PER_DAY)) {
+            throw new IllegalArgumentException("The window of " + toDate + " ends on "
+                    + dateFormat.format(new Date(lastWindowEnd * MILLIS_PER_DAY))
+                    + ", which is not before today");
+        }
+
+        List<String[]> windows = new ArrayList<>();
+        for (long slot = firstSlot; slot <= lastSlot; slot++) {
+            long windowStart = slot * windowDays;
+            long windowEnd = windowStart + windowDays - 1;
+            windows.add(new String[]{dateFormat.format(new Date(windowStart * MILLIS_PER_DAY)),
+                    dateFormat.format(new Date(windowEnd * MILLIS_PER_DAY))});
+        }
+        return windows;
+    }
+
+    // Division rounding towards negative infinity, for dates before 1970.
+    private static long floorDiv(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        return dividend % divisor < 0 ? quotient - 1 : quotient;
+    }
+
+    // Create the executor for main(): a virtual thread per task when the JVM supports it
+    // (Java 21+), otherwise a fixed pool with one thread per allowed request.
+    private static ExecutorService newExecutor(int concurrency) {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (Exception e) {
+            return Executors.newFixedThreadPool(concurrency);
+        }
+    }
+
+    // Run a backfill on the JVM:
+    // ArchiveBackfill <from yyyy-MM-dd> <to yyyy-MM-dd> <topic> <output dir>
+    //         [window days] [concurrency] [requests per second]
+    // The API key is read from the guardian.apiKey system property or the GUARDIAN_API_KEY
+    // environment variable. Articles go to articles.tsv and progress to checkpoint.txt in the
+    // output directory; running the same command again resumes the backfill.
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: ArchiveBackfill <from yyyy-MM-dd> <to yyyy-MM-dd> <topic> "
+                    + "<output dir> [window days] [concurrency] [requests per second]");
+            System.exit(1);
+        }
+        String apiKey = System.getProperty("guardian.apiKey", System.getenv("GUARDIAN_API_KEY"));
+        if (apiKey == null || apiKey.isEmpty()) {
+            System.err.println("Set the guardian.apiKey system property or GUARDIAN_API_KEY.");
+            System.exit(1);
+        }
+        int windowDays = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_WINDOW_DAYS;
+        int concurrency = args.length > 5 ? Integer.parseInt(args[5]) : DEFAULT_CONCURRENCY;
+        double requestsPerSecond = args.length > 6
+                ? Double.parseDouble(args[6]) : DEFAULT_REQUESTS_PER_SECOND;
+
+        File outputDir = new File(args[3]);
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Cannot create " + outputDir);
+        }
+
+        ExecutorService executor = newExecutor(concurrency);
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(
+                new File(outputDir, "checkpoint.txt"), args[2], DEFAULT_PAGE_SIZE, windowDays);
+        FileArticleSink sink = new FileArticleSink(new File(outputDir, "articles.tsv"));
+        try {
+            ArchiveBackfill backfill = new ArchiveBackfill(apiKey, args[2], windowDays,
+                    DEFAULT_PAGE_SIZE, concurrency, requestsPerSecond, executor, checkpoint, sink);
+            Stats stats = backfill.run(args[0], args[1]);
+            System.out.println(stats);
+        } finally {
+            executor.shutdown();
+            sink.close();
+            checkpoint.close();
+        }
+    }
+}
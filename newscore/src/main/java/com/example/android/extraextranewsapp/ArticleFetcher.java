@@ -0,0 +1,260 @@
+package com.example.android.extraextranewsapp;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Platform-independent methods for requesting and parsing article data from The Guardian.
+// Uses java.util.logging instead of android.util.Log so that it also runs on a plain JVM.
+
+public class ArticleFetcher {
+
+    // Logger for log messages.
+    private static final Logger LOGGER = Logger.getLogger(ArticleFetcher.class.getSimpleName());
+
+    // Create private constructor for ArticleFetcher. This class is meant to hold static methods.
+    private ArticleFetcher() {
+    }
+
+    // One page of search results together with the total number of pages available, and the
+    // number of malformed results that were left out of the page.
+    public static class ArticlePage {
+        private final List<Article> articles;
+        private final int pages;
+        private final int skippedResults;
+
+        public ArticlePage(List<Article> articles, int pages, int skippedResults) {
+            this.articles = articles;
+            this.pages = pages;
+            this.skippedResults = skippedResults;
+        }
+
+        public List<Article> getArticles() {
+            return articles;
+        }
+
+        public int getPages() {
+            return pages;
+        }
+
+        public int getSkippedResults() {
+            return skippedResults;
+        }
+    }
+
+    // Return one page of Article objects, or null if the request or the parsing of the response
+    // failed, so that the caller can tell a failed page from an empty one.
+
+    public static ArticlePage fetchArticlePage(String requestUrl) {
+        String jsonResponse = fetchJson(requestUrl);
+
+        // Check if JSON string is empty or null.
+        if (jsonResponse == null || jsonResponse.isEmpty()) {
+            return null;
+        }
+        try {
+            return parseArticlePage(jsonResponse);
+        } catch (JSONException e) {
+            LOGGER.log(Level.SEVERE, "Problem parsing article JSON results", e);
+            return null;
+        }
+    }
+
+    // Perform the HTTP request to the given URL and return the JSON response. Returns an empty
+    // string if the request failed, or null if closing the response stream failed.
+    private static String fetchJson(String requestUrl) {
+
+        // Create URL object
+        URL url = createUrl(requestUrl);
+
+        //Perform HTTP request to the URL and receive a JSON response
+        String jsonResponse = null;
+        try {
+            jsonResponse = makeHttpRequest(url);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Problem making HTTP request.", e);
+        }
+        return jsonResponse;
+    }
+
+    // Returns new URL object from the given string URL.
+    private static URL createUrl(String requestUrl) {
+        URL url = null;
+        try {
+            url = new URL(requestUrl);
+        } catch (MalformedURLException e) {
+            LOGGER.log(Level.SEVERE, "Problem building the URL", e);
+        }
+        return url;
+    }
+
+    // Make an HTTP request to the given URL and return a String as the response.
+
+    private static String makeHttpRequest(URL articleUrl) throws IOException {
+        String jsonResponse = "";
+
+        // Check if URL is null.
+        if (articleUrl == null) {
+            return jsonResponse;
+        }
+
+        HttpURLConnection urlConnection = null;
+        InputStream inputStream = null;
+        try {
+            urlConnection = (HttpURLConnection) articleUrl.openConnection();
+            urlConnection.setReadTimeout(10000); // milliseconds
+            urlConnection.setConnectTimeout(15000); // milliseconds
+            urlConnection.setRequestMethod("GET");
+            urlConnection.connect();
+
+            // If the HTTP request was successful, then read the input stream and parse the response.
+            if (urlConnection.getResponseCode() == HttpURLConnection.HTTP_OK) {
+                inputStream = urlConnection.getInputStream();
+                jsonResponse = readFromStream(inputStream);
+
+            } else {
+                LOGGER.severe("Error response code: " + urlConnection.getResponseCode());
+            }
+
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Problem retrieving the article JSON results ", e);
+        } finally {
+            if (urlConnection != null) {
+                urlConnection.disconnect();
+            }
+            if (inputStream != null) {
+                inputStream.close();
+            }
+        }
+        return jsonResponse;
+    }
+
+    // Convert the InputStream into a String which contains the whole JSON response from the server.
+
+    private static String readFromStream(InputStream inputStream) throws IOException {
+        StringBuilder output = new StringBuilder();
+        if (inputStream != null) {
+            InputStreamReader inputStreamReader = new InputStreamReader(inputStream, Charset.forName("UTF-8"));
+            BufferedReader reader = new BufferedReader(inputStreamReader);
+            String line = reader.readLine();
+            while (line != null) {
+                output.append(line);
+                line = reader.readLine();
+            }
+        }
+        return output.toString();
+    }
+
+    // Return a page of Article objects that has been built up from parsing the given JSON response.
+    // Throws a JSONException if the response itself is malformed. A malformed result is left out
+    // of the page and counted, so that one bad result does not cost the rest of the page.
+    static ArticlePage parseArticlePage(String articleJSON) throws JSONException {
+
+        // Create an empty ArrayList that we can start adding articles to
+        List<Article> articles = new ArrayList<>();
+        int skippedResults = 0;
+
+        // Create a JSONObject from the JSON response string.
+        JSONObject baseJSONResponse = new JSONObject(articleJSON);
+
+        // Extract the JSONArray associated with the key called "response."
+        JSONObject baseJSONResponseResult = baseJSONResponse.getJSONObject("response");
+
+        // Extract the total number of pages for this query, if present.
+        int pages = baseJSONResponseResult.optInt("pages", 1);
+
+        // Extract JSONArray associated with the key called "results."
+        JSONArray articleArray = baseJSONResponseResult.getJSONArray("results");
+
+        // Loop through each item in the articleArray and create a Article object.
+        for (int i = 0; i < articleArray.length(); i++) {
+            try {
+                // Get a single article at position i within list of articles, and add it to the
+                // list of articles.
+                articles.add(extractArticle(articleArray.getJSONObject(i)));
+            } catch (JSONException e) {
+                LOGGER.log(Level.WARNING, "Skipping malformed article at position " + i, e);
+                skippedResults++;
+            }
+        }
+
+        // Return the page of articles.
+        return new ArticlePage(articles, pages, skippedResults);
+
+    }
+
+    // Return the Article object parsed from a single result of the JSON response.
+    private static Article extractArticle(JSONObject currentArticle) throws JSONException {
+
+        // For a given article, get the value for the keys related to section, title, and url
+        String sectionName = currentArticle.getString("sectionName");
+        String articleTitle = currentArticle.getString("webTitle");
+        String articleUrl = currentArticle.getString("webUrl");
+
+        // For a given article, get the value for the key related to date.
+        // Set with the reformatted date.
+        String webPubDate = currentArticle.getString("webPublicationDate");
+        String articleDate = reformattedDate(webPubDate);
+
+        // For a given article, get the value for the key related to author.
+        // Check if the JSONObject has the key "fields."
+        // If so, extract the value for the key called "byline."
+        String articleAuthor = " ";
+        if (currentArticle.has("fields")) {
+            JSONObject fieldsObject = currentArticle.getJSONObject("fields");
+            if (fieldsObject != null && fieldsObject.has("byline")) {
+                articleAuthor = fieldsObject.getString("byline");
+                articleAuthor = "By " + articleAuthor;
+            }
+        } else if (currentArticle.has("tags")) {
+            //Check if the JSONArray has the key "tags."
+            // If so, extract the value for the key called "webTitle."
+            JSONArray tagsArray = currentArticle.getJSONArray("tags");
+            if (tagsArray != null && tagsArray.length() > 0) {
+                JSONObject authorTag = (JSONObject) tagsArray.get(0);
+                articleAuthor = authorTag.getString("webTitle");
+                articleAuthor = "By " + articleAuthor;
+            }
+
+        }
+
+        // Create a new Article object with section, title, reformatted date, author.
+        return new Article(sectionName, articleTitle, articleAuthor, articleDate, articleUrl);
+    }
+
+    // Parse the webPubDate "YYYY-MM-DDTHH:MM:SSZ" and reformat to "MM dd yyyy").
+    // (Credit: Java SimpleDateFormat on 8/27/2018, http://tutorials.jenkov.com/java-internationalization/simpledateformat.html,
+    // which is a tutorial posted to Slack on 8/22/2018 by ABND Scholar Charles Rowland.)
+    private static String reformattedDate(String webPubDate) {
+        Date date = null;
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+        try {
+            date = simpleDateFormat.parse(webPubDate);
+        } catch (ParseException e) {
+            LOGGER.log(Level.WARNING, "Problem parsing the date", e);
+            // Keep the date as it was sent rather than losing the article.
+            return webPubDate;
+        }
+
+        SimpleDateFormat simpleDateFormatResult = new SimpleDateFormat("MMM dd, yyyy");
+        String reformattedDate = simpleDateFormatResult.format(date);
+        return reformattedDate;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.android.extraextranewsapp;
+
+import java.io.IOException;
+import java.util.List;
+
+// Receives the articles parsed by the archive backfill, one page at a time.
+// Implementations are called from several threads at once and must be thread-safe.
+
+public interface ArticleSink {
+
+    /**
+     * Store a page of articles.
+     *
+     * @param articles is the list of articles parsed from one page of results.
+     */
+
+    void accept(List<Article> articles) throws IOException;
+}
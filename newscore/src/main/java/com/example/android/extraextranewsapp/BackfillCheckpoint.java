@@ -0,0 +1,183 @@
+package com.example.android.extraextranewsapp;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Records which pages of which date windows the archive backfill has already stored, so that an
+// interrupted backfill can resume where it stopped. The first line of the file records the query
+// the pages belong to: "# pageSize=<page size> windowDays=<days> topic=<URL-encoded topic>".
+// Each completed page is then appended as one line: "<window> <page> <total pages>".
+
+public class BackfillCheckpoint implements Closeable {
+
+    private final String topic;
+    private final int pageSize;
+    private final int windowDays;
+    private final Set<String> donePages = new HashSet<>();
+    private final Map<String, Integer> pageCounts = new HashMap<>();
+    private final BufferedWriter writer;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Load the checkpoint file if it exists, and open it for appending. Resuming is refused if
+     * the file was written for a different topic, page size or window length, because its
+     * windows and page numbers would then refer to other articles.
+     *
+     * @param file       is the checkpoint file.
+     * @param topic      is the search query of the backfill.
+     * @param pageSize   is the number of articles requested per page.
+     * @param windowDays is the number of days in each date window.
+     */
+
+    public BackfillCheckpoint(File file, String topic, int pageSize, int windowDays)
+            throws IOException {
+        this.topic = topic;
+        this.pageSize = pageSize;
+        this.windowDays = windowDays;
+        String header = header(topic, pageSize, windowDays);
+        boolean resume = file.exists() && file.length() > 0;
+        if (resume) {
+            load(file, header);
+        }
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true),
+                Charset.forName("UTF-8")));
+        if (!resume) {
+            writer.write(header);
+            writer.newLine();
+            writer.flush();
+        } else if (!endsWithNewLine(file)) {
+            // Finish a line cut short by a crash, so the next page gets a line of its own.
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    // Read the completed pages from an existing checkpoint file, skipping malformed lines
+    // (e.g. a line cut short by a crash).
+    private void load(File file, String header) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                Charset.forName("UTF-8")));
+        try {
+            String line = reader.readLine();
+            if (!header.equals(line)) {
+                throw new IOException("Checkpoint " + file + " was written for another query ("
+                        + line + "), expected " + header + "; use another output directory");
+            }
+            line = reader.readLine();
+            while (line != null) {
+                String[] parts = line.trim().split(" ");
+                if (parts.length == 3) {
+                    try {
+                        int page = Integer.parseInt(parts[1]);
+                        int pages = Integer.parseInt(parts[2]);
+                        donePages.add(pageKey(parts[0], page));
+                        pageCounts.put(parts[0], pages);
+                    } catch (NumberFormatException e) {
+                        // Ignore the malformed line; the page will be fetched again.
+                    }
+                }
+                line = reader.readLine();
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    // Return true if the given page of the window has already been stored.
+    public boolean isDone(String window, int page) {
+        lock.lock();
+        try {
+            return donePages.contains(pageKey(window, page));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Return the total number of pages of the window, or null if it is not known yet.
+    public Integer getPageCount(String window) {
+        lock.lock();
+        try {
+            return pageCounts.get(window);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record that a page has been stored.
+     *
+     * @param window is the key of the date window.
+     * @param page   is the page number within the window, starting at 1.
+     * @param pages  is the total number of pages of the window.
+     */
+
+    public void markDone(String window, int page, int pages) throws IOException {
+        lock.lock();
+        try {
+            writer.write(window + " " + page + " " + pages);
+            writer.newLine();
+            writer.flush();
+            donePages.add(pageKey(window, page));
+            pageCounts.put(window, pages);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            writer.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean endsWithNewLine(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            randomAccessFile.seek(file.length() - 1);
+            int last = randomAccessFile.read();
+            return last == '\n' || last == '\r';
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static String header(String topic, int pageSize, int windowDays) throws IOException {
+        return "# pageSize=" + pageSize + " windowDays=" + windowDays
+                + " topic=" + URLEncoder.encode(topic, "UTF-8");
+    }
+
+    private static String pageKey(String window, int page) {
+        return window + "#" + page;
+    }
+}
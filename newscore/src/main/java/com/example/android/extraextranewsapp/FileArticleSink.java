@@ -0,0 +1,72 @@
+package com.example.android.extraextranewsapp;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Local article store that appends articles to a tab-separated file, one article per line:
+// section, title, author, date, url.
+
+public class FileArticleSink implements ArticleSink, Closeable {
+
+    private final BufferedWriter writer;
+
+    // A lock rather than synchronized, so that virtual threads blocked on file I/O do not pin
+    // their carrier thread.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Open the store, appending to the file if it already exists.
+     *
+     * @param file is the file that the articles are written to.
+     */
+
+    public FileArticleSink(File file) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true),
+                Charset.forName("UTF-8")));
+    }
+
+    @Override
+    public void accept(List<Article> articles) throws IOException {
+        lock.lock();
+        try {
+            for (Article article : articles) {
+                writer.write(clean(article.getSectionName()));
+                writer.write('\t');
+                writer.write(clean(article.getArticleTitle()));
+                writer.write('\t');
+                writer.write(clean(article.getArticleAuthor()));
+                writer.write('\t');
+                writer.write(clean(article.getWebPubDate()));
+                writer.write('\t');
+                writer.write(clean(article.getArticleUrl()));
+                writer.newLine();
+            }
+            // Flush the whole page before it is checkpointed.
+            writer.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            writer.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Replace tabs and line breaks so that each article stays on one line.
+    private static String clean(String value) {
+        return value == null ? "" : value.replaceAll("[\\t\\r\\n]", " ");
+    }
+}
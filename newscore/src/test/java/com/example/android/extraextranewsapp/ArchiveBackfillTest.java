@@ -0,0 +1,273 @@
+package com.example.android.extraextranewsapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the archive backfill, using a fake fetch instead of the network.
+ */
+public class ArchiveBackfillTest {
+
+    // Every window of the fake archive has this many pages, with one article per page.
+    private static final int PAGES_PER_WINDOW = 3;
+
+    // A "today" long after the test ranges, so that all of their windows have ended.
+    private static final Date TODAY = new Date(1546300800000L); // 2019-01-01
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ExecutorService executor;
+    private File checkpointFile;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        checkpointFile = new File(folder.getRoot(), "checkpoint.txt");
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // Stores the articles in memory, one per page, named "<from date> <page>".
+    private static class MemoryArticleSink implements ArticleSink {
+        final List<String> titles = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void accept(List<Article> articles) {
+            for (Article article : articles) {
+                titles.add(article.getArticleTitle());
+            }
+        }
+    }
+
+    // Serves the fake archive. Pages listed in failingPages fail, as if the request or the
+    // parsing failed; pages listed in crashingPages throw.
+    private static class FakeBackfill extends ArchiveBackfill {
+        final Set<String> failingPages = Collections.synchronizedSet(new HashSet<String>());
+        final Set<String> crashingPages = Collections.synchronizedSet(new HashSet<String>());
+
+        FakeBackfill(ExecutorService executor, BackfillCheckpoint checkpoint, ArticleSink sink) {
+            this(1000, executor, checkpoint, sink);
+        }
+
+        FakeBackfill(double requestsPerSecond, ExecutorService executor,
+                     BackfillCheckpoint checkpoint, ArticleSink sink) {
+            super("test-key", "politics", 7, 10, 2, requestsPerSecond, executor, checkpoint, sink);
+            retryDelayMillis = 0;
+        }
+
+        @Override
+        ArticleFetcher.ArticlePage fetchPage(String requestUrl) {
+            String key = parameter(requestUrl, "from-date") + " " + parameter(requestUrl, "page");
+            if (failingPages.contains(key)) {
+                return null;
+            }
+            if (crashingPages.contains(key)) {
+                throw new IllegalStateException("Unexpected response for " + key);
+            }
+            List<Article> articles = new ArrayList<>();
+            articles.add(new Article("Politics", key, "By Jane Doe", "Jan 01, 2018",
+                    "https://example.com/" + key));
+            return new ArticleFetcher.ArticlePage(articles, PAGES_PER_WINDOW, 0);
+        }
+
+        private static String parameter(String url, String name) {
+            int start = url.indexOf("&" + name + "=") + name.length() + 2;
+            int end = url.indexOf('&', start);
+            return end < 0 ? url.substring(start) : url.substring(start, end);
+        }
+    }
+
+    private BackfillCheckpoint openCheckpoint() throws IOException {
+        return new BackfillCheckpoint(checkpointFile, "politics", 10, 7);
+    }
+
+    @Test
+    public void splitIntoWindows_crossesMonthBoundary() throws ParseException {
+        List<String[]> windows =
+                ArchiveBackfill.splitIntoWindows("2018-01-29", "2018-02-11", 7, TODAY);
+
+        assertEquals(3, windows.size());
+        assertArrayEquals(new String[]{"2018-01-25", "2018-01-31"}, windows.get(0));
+        assertArrayEquals(new String[]{"2018-02-01", "2018-02-07"}, windows.get(1));
+        assertArrayEquals(new String[]{"2018-02-08", "2018-02-14"}, windows.get(2));
+    }
+
+    @Test
+    public void splitIntoWindows_doesNotDependOnFromDate() throws ParseException {
+        List<String[]> windows =
+                ArchiveBackfill.splitIntoWindows("2018-01-01", "2018-01-17", 7, TODAY);
+        List<String[]> earlierWindows =
+                ArchiveBackfill.splitIntoWindows("2017-12-30", "2018-01-17", 7, TODAY);
+
+        assertEquals(3, windows.size());
+        assertArrayEquals(new String[]{"2017-12-28", "2018-01-03"}, windows.get(0));
+        assertArrayEquals(new String[]{"2018-01-11", "2018-01-17"}, windows.get(2));
+        assertEquals(windows.size(), earlierWindows.size());
+        for (int i = 0; i < windows.size(); i++) {
+            assertArrayEquals(windows.get(i), earlierWindows.get(i));
+        }
+    }
+
+    @Test
+    public void splitIntoWindows_singleDay() throws ParseException {
+        List<String[]> windows =
+                ArchiveBackfill.splitIntoWindows("2018-03-01", "2018-03-01", 1, TODAY);
+
+        assertEquals(1, windows.size());
+        assertArrayEquals(new String[]{"2018-03-01", "2018-03-01"}, windows.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void splitIntoWindows_rejectsFromAfterTo() throws ParseException {
+        ArchiveBackfill.splitIntoWindows("2018-02-01", "2018-01-01", 7, TODAY);
+    }
+
+    @Test
+    public void splitIntoWindows_rejectsWindowThatHasNotEnded() throws ParseException {
+        // 2018-01-14 is in the window from 2018-01-11 to 2018-01-17.
+        Date dayAfterWindow = new Date(1516233600000L); // 2018-01-18
+        Date lastDayOfWindow = new Date(1516147200000L); // 2018-01-17
+        assertEquals(3, ArchiveBackfill.splitIntoWindows("2018-01-01", "2018-01-14", 7,
+                dayAfterWindow).size());
+        try {
+            ArchiveBackfill.splitIntoWindows("2018-01-01", "2018-01-14", 7, lastDayOfWindow);
+            fail("A window that has not ended must be rejected");
+        } catch (IllegalArgumentException expected) {
+            // The window keeps growing until it has ended.
+        }
+    }
+
+    @Test
+    public void run_storesEveryPage() throws Exception {
+        MemoryArticleSink sink = new MemoryArticleSink();
+        BackfillCheckpoint checkpoint = openCheckpoint();
+
+        ArchiveBackfill.Stats stats =
+                new FakeBackfill(executor, checkpoint, sink).run("2018-01-01", "2018-01-14");
+        checkpoint.close();
+
+        assertEquals(3, stats.getWindows());
+        assertEquals(9, stats.getPagesFetched());
+        assertEquals(0, stats.getPagesFailed());
+        assertEquals(9, stats.getArticlesStored());
+        assertEquals(9, sink.titles.size());
+    }
+
+    @Test
+    public void run_resumesFailedPages() throws Exception {
+        MemoryArticleSink sink = new MemoryArticleSink();
+
+        // The first run fails page 2 of the first window and crashes on page 1 of the second.
+        BackfillCheckpoint checkpoint = openCheckpoint();
+        FakeBackfill backfill = new FakeBackfill(executor, checkpoint, sink);
+        backfill.failingPages.add("2017-12-28 2");
+        backfill.crashingPages.add("2018-01-04 1");
+        ArchiveBackfill.Stats stats = backfill.run("2018-01-01", "2018-01-14");
+        checkpoint.close();
+
+        assertEquals(5, stats.getPagesFetched());
+        assertEquals(2, stats.getPagesFailed());
+        assertEquals(5, sink.titles.size());
+
+        // The second run only fetches the pages that are missing.
+        checkpoint = openCheckpoint();
+        stats = new FakeBackfill(executor, checkpoint, sink).run("2018-01-01", "2018-01-14");
+        checkpoint.close();
+
+        assertEquals(4, stats.getPagesFetched());
+        assertEquals(5, stats.getPagesSkipped());
+        assertEquals(0, stats.getPagesFailed());
+        assertEquals(9, sink.titles.size());
+        assertEquals(9, new HashSet<>(sink.titles).size());
+    }
+
+    @Test
+    public void run_resumesWhenStartDateMovesEarlier() throws Exception {
+        MemoryArticleSink sink = new MemoryArticleSink();
+
+        BackfillCheckpoint checkpoint = openCheckpoint();
+        new FakeBackfill(executor, checkpoint, sink).run("2018-01-01", "2018-01-14");
+        checkpoint.close();
+
+        // Starting earlier adds the windows from 2017-12-14 and 2017-12-21; the three windows
+        // of the first run are reused as they are.
+        checkpoint = openCheckpoint();
+        ArchiveBackfill.Stats stats =
+                new FakeBackfill(executor, checkpoint, sink).run("2017-12-20", "2018-01-14");
+        checkpoint.close();
+
+        assertEquals(5, stats.getWindows());
+        assertEquals(6, stats.getPagesFetched());
+        assertEquals(9, stats.getPagesSkipped());
+        assertEquals(15, sink.titles.size());
+        assertEquals(15, new HashSet<>(sink.titles).size());
+    }
+
+    @Test
+    public void run_keepsToRequestsPerSecond() throws Exception {
+        BackfillCheckpoint checkpoint = openCheckpoint();
+
+        // Nine requests at 20 per second start at least 8 * 50 milliseconds apart in total.
+        ArchiveBackfill.Stats stats = new FakeBackfill(20, executor, checkpoint,
+                new MemoryArticleSink()).run("2018-01-01", "2018-01-14");
+        checkpoint.close();
+
+        assertEquals(9, stats.getPagesFetched());
+        assertTrue(stats.getElapsedMillis() >= 8 * 50);
+    }
+
+    @Test
+    public void run_countsRejectedWindows() throws Exception {
+        BackfillCheckpoint checkpoint = openCheckpoint();
+        executor.shutdown();
+
+        FakeBackfill backfill = new FakeBackfill(executor, checkpoint, new MemoryArticleSink());
+        ArchiveBackfill.Stats stats = backfill.run("2018-01-01", "2018-01-14");
+        checkpoint.close();
+
+        assertEquals(3, stats.getWindowsFailed());
+        assertEquals(0, stats.getPagesFailed());
+        assertEquals(0, stats.getPagesFetched());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsCheckpointOfAnotherQuery() throws IOException {
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(checkpointFile, "science", 10, 7);
+        try {
+            new FakeBackfill(executor, checkpoint, new MemoryArticleSink());
+        } finally {
+            checkpoint.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsCheckpointOfAnotherWindowLength() throws IOException {
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(checkpointFile, "politics", 10, 14);
+        try {
+            new FakeBackfill(executor, checkpoint, new MemoryArticleSink());
+        } finally {
+            checkpoint.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.android.extraextranewsapp;
+
+import org.json.JSONException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for parsing a response of The Guardian API.
+ */
+public class ArticleFetcherTest {
+
+    private static final String RESPONSE = "{\"response\": {\"status\": \"ok\", \"pages\": 4,"
+            + " \"results\": ["
+            // Author from the byline field.
+            + "{\"sectionName\": \"Politics\", \"webTitle\": \"First\","
+            + " \"webUrl\": \"https://example.com/1\","
+            + " \"webPublicationDate\": \"2018-01-05T10:00:00Z\","
+            + " \"fields\": {\"byline\": \"Jane Doe\"}},"
+            // No fields, so the author comes from the contributor tag.
+            + "{\"sectionName\": \"Sport\", \"webTitle\": \"Second\","
+            + " \"webUrl\": \"https://example.com/2\","
+            + " \"webPublicationDate\": \"2018-01-06T10:00:00Z\","
+            + " \"tags\": [{\"webTitle\": \"John Roe\"}]},"
+            // Malformed: no webTitle.
+            + "{\"sectionName\": \"World\", \"webUrl\": \"https://example.com/3\","
+            + " \"webPublicationDate\": \"2018-01-07T10:00:00Z\"},"
+            // Date that cannot be parsed, and no author.
+            + "{\"sectionName\": \"Arts\", \"webTitle\": \"Fourth\","
+            + " \"webUrl\": \"https://example.com/4\","
+            + " \"webPublicationDate\": \"sometime\"}"
+            + "]}}";
+
+    private Locale defaultLocale;
+
+    @Before
+    public void setUp() {
+        // The reformatted date uses month names of the default locale.
+        defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.US);
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    public void parseArticlePage_readsPagesAndAuthors() throws JSONException {
+        ArticleFetcher.ArticlePage page = ArticleFetcher.parseArticlePage(RESPONSE);
+
+        assertEquals(4, page.getPages());
+        assertEquals(3, page.getArticles().size());
+
+        Article first = page.getArticles().get(0);
+        assertEquals("Politics", first.getSectionName());
+        assertEquals("First", first.getArticleTitle());
+        assertEquals("By Jane Doe", first.getArticleAuthor());
+        assertEquals("Jan 05, 2018", first.getWebPubDate());
+        assertEquals("https://example.com/1", first.getArticleUrl());
+
+        assertEquals("By John Roe", page.getArticles().get(1).getArticleAuthor());
+    }
+
+    @Test
+    public void parseArticlePage_skipsMalformedResultsAndKeepsTheRest() throws JSONException {
+        ArticleFetcher.ArticlePage page = ArticleFetcher.parseArticlePage(RESPONSE);
+
+        assertEquals(1, page.getSkippedResults());
+        Article last = page.getArticles().get(2);
+        assertEquals("Fourth", last.getArticleTitle());
+        assertEquals("sometime", last.getWebPubDate());
+        assertEquals(" ", last.getArticleAuthor());
+    }
+
+    @Test
+    public void parseArticlePage_defaultsToOnePage() throws JSONException {
+        ArticleFetcher.ArticlePage page =
+                ArticleFetcher.parseArticlePage("{\"response\": {\"results\": []}}");
+
+        assertEquals(1, page.getPages());
+        assertTrue(page.getArticles().isEmpty());
+    }
+
+    @Test(expected = JSONException.class)
+    public void parseArticlePage_failsWithoutResponse() throws JSONException {
+        ArticleFetcher.parseArticlePage("{\"message\": \"API rate limit exceeded\"}");
+    }
+
+    @Test(expected = JSONException.class)
+    public void parseArticlePage_failsWithoutResults() throws JSONException {
+        ArticleFetcher.parseArticlePage("{\"response\": {\"pages\": 2}}");
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.android.extraextranewsapp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the backfill checkpoint file.
+ */
+public class BackfillCheckpointTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void markDone_isLoadedWhenResuming() throws IOException {
+        File file = new File(folder.getRoot(), "checkpoint.txt");
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(file, "politics", 50, 7);
+        assertNull(checkpoint.getPageCount("2018-01-01_2018-01-07"));
+        checkpoint.markDone("2018-01-01_2018-01-07", 1, 3);
+        checkpoint.markDone("2018-01-01_2018-01-07", 3, 3);
+        checkpoint.close();
+
+        BackfillCheckpoint resumed = new BackfillCheckpoint(file, "politics", 50, 7);
+        assertEquals(Integer.valueOf(3), resumed.getPageCount("2018-01-01_2018-01-07"));
+        assertTrue(resumed.isDone("2018-01-01_2018-01-07", 1));
+        assertFalse(resumed.isDone("2018-01-01_2018-01-07", 2));
+        assertTrue(resumed.isDone("2018-01-01_2018-01-07", 3));
+        assertNull(resumed.getPageCount("2018-01-08_2018-01-14"));
+        resumed.close();
+    }
+
+    @Test
+    public void truncatedLastLine_isIgnored() throws IOException {
+        File file = new File(folder.getRoot(), "checkpoint.txt");
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(file, "politics", 50, 7);
+        checkpoint.markDone("2018-01-01_2018-01-07", 1, 2);
+        checkpoint.close();
+
+        // Simulate a crash in the middle of writing the next line.
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file, true),
+                Charset.forName("UTF-8"));
+        writer.write("2018-01-01_2018-01-07 2");
+        writer.close();
+
+        BackfillCheckpoint resumed = new BackfillCheckpoint(file, "politics", 50, 7);
+        assertTrue(resumed.isDone("2018-01-01_2018-01-07", 1));
+        assertFalse(resumed.isDone("2018-01-01_2018-01-07", 2));
+
+        // The page is recorded on a line of its own after the truncated one.
+        resumed.markDone("2018-01-01_2018-01-07", 2, 2);
+        resumed.close();
+        BackfillCheckpoint reloaded = new BackfillCheckpoint(file, "politics", 50, 7);
+        assertTrue(reloaded.isDone("2018-01-01_2018-01-07", 2));
+        reloaded.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void resumingWithAnotherTopic_isRefused() throws IOException {
+        File file = new File(folder.getRoot(), "checkpoint.txt");
+        new BackfillCheckpoint(file, "politics", 50, 7).close();
+
+        new BackfillCheckpoint(file, "science", 50, 7);
+    }
+
+    @Test(expected = IOException.class)
+    public void resumingWithAnotherPageSize_isRefused() throws IOException {
+        File file = new File(folder.getRoot(), "checkpoint.txt");
+        new BackfillCheckpoint(file, "politics", 50, 7).close();
+
+        new BackfillCheckpoint(file, "politics", 100, 7);
+    }
+
+    @Test(expected = IOException.class)
+    public void resumingWithAnotherWindowLength_isRefused() throws IOException {
+        File file = new File(folder.getRoot(), "checkpoint.txt");
+        new BackfillCheckpoint(file, "politics", 50, 7).close();
+
+        new BackfillCheckpoint(file, "politics", 50, 14);
+    }
+}